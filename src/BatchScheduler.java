@@ -0,0 +1,268 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.solver.search.measure.MeasuresRecorder;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.chocosolver.solver.search.strategy.Search.activityBasedSearch;
+
+/*
+Shares one total time budget between a batch of instances instead of giving each the same fixed limit.
+Incumbents on these models show up within a second or so and the rest of the run is spent proving them, so
+progress is judged on the proof: the fraction of the search tree already explored, read off the decision path.
+Proof times are heavy tailed, so time is handed out in doubling levels, one of which is the even split of the
+budget. Every unfinished instance reaches a level before any goes past it, so each gets at least what a fixed
+limit would have given it, and time freed by quick proofs goes to the next level. Within a level, instances whose
+explored fraction says they can finish inside the remaining budget go first, soonest first, then the ones furthest
+into their tree. Time goes out in short slices, none longer than an even split of what is left. Solvers are only
+paused between slices, never reset, so no search is repeated.
+ */
+public class BatchScheduler {
+    private static double sliceLength = 1.0;
+    //levels below the even split, the first is evenSplit / 2^levelsBelow
+    private static int levelsBelow = 3;
+
+    public static class Instance {
+        public String name;
+        public ConstrainedGraph g;
+        public int upperBound;
+        public int best = -1;
+        public boolean optimal = false;
+        public boolean finished = false;
+        public double spent = 0;
+        //estimated fraction of the search tree explored
+        public double progress = 0;
+        //explored fraction per second, 0 when the last slice didn't move it
+        public double rate = 0;
+        private double spentAtStart = -1;
+        private long deadline;
+        private Solver solver;
+
+        //seconds of solving left at the current rate, infinite when there's nothing to go on
+        public double remaining() {
+            return rate > 0 ? (1 - progress) / rate : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private final double budget;
+    private final List<Instance> instances = new ArrayList<>();
+
+    /*
+    budget is the total number of seconds shared across all instances
+     */
+    public BatchScheduler(double budget) {
+        this.budget = budget;
+    }
+
+    /*
+    g must already be constrained with its reachability requirements posted.
+    upperBound is any known bound on tcSum, e.g. base reachability less the negative requirements.
+    It is tightened by root propagation, and reaching it counts as proven optimal
+     */
+    public Instance add(String name, ConstrainedGraph g, int upperBound) {
+        Instance inst = new Instance();
+        inst.name = name;
+        inst.g = g;
+        inst.solver = g.model.getSolver();
+        try {
+            inst.solver.propagate();
+            inst.upperBound = Math.min(upperBound, g.tcSum.getUB());
+        } catch (ContradictionException e) {
+            //infeasible at the root, nothing to schedule
+            inst.upperBound = upperBound;
+            inst.finished = true;
+        }
+        inst.solver.setSearch(activityBasedSearch(ArrayUtils.flatten(g.open)));
+        inst.solver.addStopCriterion(() -> System.nanoTime() >= inst.deadline);
+        g.model.setObjective(Model.MAXIMIZE, g.tcSum);
+        instances.add(inst);
+        return inst;
+    }
+
+    public List<Instance> run() {
+        long end = System.nanoTime() + (long) (budget * 1e9);
+        double firstLevel = budget / Math.max(instances.size(), 1) / (1 << levelsBelow);
+
+        while (System.nanoTime() < end) {
+            int unfinished = 0;
+            for (Instance inst : instances) {
+                if (!inst.finished) unfinished += 1;
+            }
+            if (unfinished == 0) break;
+            double left = (end - System.nanoTime()) / 1e9;
+
+            Instance next = null;
+            for (Instance inst : instances) {
+                if (inst.finished) continue;
+                if (next == null || before(inst, next, firstLevel, left)) next = inst;
+            }
+            double length = Math.min(sliceLength, left / unfinished);
+            slice(next, Math.min(length, level(next, firstLevel) - next.spent), end);
+        }
+        return instances;
+    }
+
+    /*
+    Total time inst may have before it moves up a level: the first of firstLevel, 2*firstLevel, 4*firstLevel ...
+    it hasn't reached yet
+     */
+    private static double level(Instance inst, double firstLevel) {
+        double level = firstLevel;
+        while (level <= inst.spent) level *= 2;
+        return level;
+    }
+
+    /*
+    Whether a should get the next slice ahead of b
+     */
+    private static boolean before(Instance a, Instance b, double firstLevel, double left) {
+        //lowest level first
+        double aLevel = level(a, firstLevel);
+        double bLevel = level(b, firstLevel);
+        if (aLevel != bLevel) return aLevel < bLevel;
+        //then whichever is expected to finish within the budget soonest
+        boolean aFits = a.remaining() <= left;
+        boolean bFits = b.remaining() <= left;
+        if (aFits != bFits) return aFits;
+        if (aFits) return a.remaining() < b.remaining();
+        //otherwise concentrate on the furthest along
+        if (a.progress != b.progress) return a.progress > b.progress;
+        return a.spent < b.spent;
+    }
+
+    /*
+    Resumes inst for up to length seconds, stopping early at the end of the batch or when its search completes
+     */
+    private void slice(Instance inst, double length, long end) {
+        long start = System.nanoTime();
+        inst.deadline = Math.min(end, start + (long) (Math.max(length, 0.01) * 1e9));
+        double before = inst.progress;
+
+        boolean exhausted = false;
+        while (System.nanoTime() < inst.deadline) {
+            if (!inst.solver.solve()) {
+                exhausted = inst.solver.getMeasures().getSearchState() != SearchState.STOPPED;
+                break;
+            }
+            inst.best = inst.g.tcSum.getValue();
+            if (inst.best >= inst.upperBound) break;
+        }
+        inst.spent += (System.nanoTime() - start) / 1e9;
+
+        if (inst.best >= inst.upperBound) {
+            //reached the bound, nothing left to prove
+            inst.finished = true;
+            inst.optimal = true;
+        } else if (exhausted) {
+            inst.finished = true;
+            inst.optimal = inst.best >= 0 && inst.solver.getMeasures().isObjectiveOptimal();
+        } else {
+            inst.progress = explored(inst.solver);
+            if (inst.progress > before) {
+                //average over the time since the tree started being explored, single slices are too noisy
+                if (inst.spentAtStart < 0) inst.spentAtStart = inst.spent - (System.nanoTime() - start) / 1e9;
+                inst.rate = inst.progress / Math.max(inst.spent - inst.spentAtStart, 1e-3);
+            } else {
+                inst.rate = 0;
+                //restarts throw the tree away, start measuring again
+                if (inst.progress < before) inst.spentAtStart = -1;
+            }
+        }
+    }
+
+    /*
+    Fraction of the search tree left of the current decision path. Each decision on the path has used some of its
+    branches, weighted by the share of the tree that level covers. It stays near 0 while activity based search is
+    still restarting to sample
+     */
+    private static double explored(Solver solver) {
+        DecisionPath path = solver.getDecisionPath();
+        double done = 0;
+        double weight = 1;
+        //decision 0 is the root
+        for (int i = 1; i < path.size(); i++) {
+            Decision d = path.getDecision(i);
+            int arity = d.getArity();
+            done += weight * Math.max(arity - d.triesLeft() - 1, 0) / arity;
+            weight /= arity;
+        }
+        return done;
+    }
+
+    /*
+    Same kind of instances as RandDataGen.genCycles. Each is solved twice on fresh models: once with the budget
+    split evenly as a fixed limitTime per instance, and once through the scheduler with the same total budget.
+    A throwaway solve warms the JIT up first so neither side pays for it.
+    Sizes alternate between 10 and 12, where proof times run from well under to a few times the even split.
+    At size 20 nearly every proof needs far more than the whole budget, so no split of it can close more
+     */
+    public static void main(String[] args) {
+        int type = 1;
+        int cycles = 10;
+        int pos = 1;
+        int neg = 1;
+        double budget = cycles * 10;
+
+        int[][][] edges = new int[cycles][][];
+        int[][][][] reachability = new int[cycles][][][];
+        int[] ub = new int[cycles];
+        for (int j = 0; j < cycles; j++) {
+            ConstrainedGraph g = RandDataGen.genGraph(type, j % 2 == 0 ? 10 : 12);
+            GraphGenerator.genBaseReachability(g);
+            edges[j] = g.edges;
+            ub[j] = Arrays.stream(ArrayUtils.flatten(g.concreteTC)).sum() - neg;
+            reachability[j] = GraphGenerator.genReachability(g, pos, neg);
+        }
+
+        ConstrainedGraph warm = GraphGenerator.rebuild(edges[0], reachability[0]);
+        warm.model.getSolver().limitTime("10s");
+        warm.model.getSolver().setSearch(activityBasedSearch(ArrayUtils.flatten(warm.open)));
+        warm.model.setObjective(Model.MAXIMIZE, warm.tcSum);
+        while (warm.model.getSolver().solve()) {}
+
+        //fixed baseline
+        int fixedOptimal = 0;
+        double fixedTime = 0;
+        for (int j = 0; j < cycles; j++) {
+            ConstrainedGraph g = GraphGenerator.rebuild(edges[j], reachability[j]);
+            Solver solver = g.model.getSolver();
+            MeasuresRecorder measures = solver.getMeasures();
+            solver.limitTime("" + (budget / cycles) + "s");
+            solver.setSearch(activityBasedSearch(ArrayUtils.flatten(g.open)));
+            g.model.setObjective(Model.MAXIMIZE, g.tcSum);
+            int best = -1;
+            while (solver.solve()) {
+                best = g.tcSum.getValue();
+            }
+            boolean optimal = best >= ub[j] || (best >= 0 && measures.isObjectiveOptimal());
+            if (optimal) fixedOptimal += 1;
+            fixedTime += measures.getTimeCount();
+            System.out.println("Fixed Graph " + j + ": " + best + "/" + ub[j]
+                    + (optimal ? " optimal" : " stopped") + " after " + measures.getTimeCount() + "s");
+        }
+
+        BatchScheduler scheduler = new BatchScheduler(budget);
+        for (int j = 0; j < cycles; j++) {
+            scheduler.add("Graph " + j, GraphGenerator.rebuild(edges[j], reachability[j]), ub[j]);
+        }
+
+        int optimal = 0;
+        double scheduledTime = 0;
+        for (Instance inst : scheduler.run()) {
+            if (inst.optimal) optimal += 1;
+            scheduledTime += inst.spent;
+            System.out.println("Scheduled " + inst.name + ": " + inst.best + "/" + inst.upperBound
+                    + (inst.optimal ? " optimal" : " stopped") + " after " + inst.spent + "s");
+        }
+        System.out.println("\nBudget: " + budget + "s" +
+                "\nFixed limit optimal solves: " + fixedOptimal + " of " + cycles + " in " + fixedTime + "s" +
+                "\nScheduled optimal solves: " + optimal + " of " + cycles + " in " + scheduledTime + "s");
+    }
+}
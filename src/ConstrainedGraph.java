@@ -47,6 +47,15 @@ public class ConstrainedGraph {
         edges[i][j] = 0;
     }
 
+    /*
+    Posts reachability requirements, each pair is {from, to}.
+    pos pairs must stay reachable, neg pairs must become unreachable
+     */
+    public void require(int[][] pos, int[][] neg) {
+        for (int[] p : pos) this.model.arithm(this.tc[p[0]][p[1]], "=", 1).post();
+        for (int[] n : neg) this.model.arithm(this.tc[n[0]][n[1]], "=", 0).post();
+    }
+
     /*
     Only call this when the state of the graph is finalised
      */
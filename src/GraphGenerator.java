@@ -106,6 +106,17 @@ public class GraphGenerator {
         return cg;
     }
 
+    /*
+    Rebuilds an instance from its edge matrix and the {pos pairs, neg pairs} returned by genReachability
+     */
+    public static ConstrainedGraph rebuild(int[][] edges, int[][][] reachability) {
+        ConstrainedGraph g = new ConstrainedGraph(edges.length, type);
+        g.edges = edges;
+        g.constrain();
+        g.require(reachability[0], reachability[1]);
+        return g;
+    }
+
     public static void genBaseReachability(ConstrainedGraph g) {
         Solver solver = g.model.getSolver();
         solver.setSearch(activityBasedSearch(ArrayUtils.flatten(g.open)));
@@ -120,19 +131,24 @@ public class GraphGenerator {
         solver.hardReset();
     }
 
-    public static void genReachability(ConstrainedGraph g) {
-        genReachability(g, r.nextInt(g.numVertices/2), r.nextInt(g.numVertices/2));
+    public static int[][][] genReachability(ConstrainedGraph g) {
+        return genReachability(g, r.nextInt(g.numVertices/2), r.nextInt(g.numVertices/2));
     }
 
-    public static void genReachability(ConstrainedGraph g, int pos, int neg) {
+    /*
+    Picks and posts pos/neg requirements, returns them as {pos pairs, neg pairs} so the instance can be rebuilt
+     */
+    public static int[][][] genReachability(ConstrainedGraph g, int pos, int neg) {
         int size = g.numVertices;
+        int[][] posPairs = new int[pos][];
+        int[][] negPairs = new int[neg][];
         while (neg > 0) {
             int i = r.nextInt(size);
             int j = r.nextInt(size);
             if (g.concreteTC[i][j] == 1) {
                 g.concreteTC[i][j]=0;
-                g.model.arithm(g.tc[i][j], "=", 0).post();
                 neg-=1;
+                negPairs[neg] = new int[] {i, j};
                 System.out.println(" neg: " + i + " -> " + j);
             }
         }
@@ -142,11 +158,13 @@ public class GraphGenerator {
             int j = r.nextInt(size);
             if (g.concreteTC[i][j] == 1) {
                 g.concreteTC[i][j]=0;
-                g.model.arithm(g.tc[i][j], "=", 1).post();
                 pos-=1;
+                posPairs[pos] = new int[] {i, j};
                 System.out.println(" pos: " + i + " -> " + j);
             }
         }
+        g.require(posPairs, negPairs);
+        return new int[][][] {posPairs, negPairs};
     }
 
     public static void main(String[] args) {
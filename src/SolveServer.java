@@ -0,0 +1,268 @@
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.SearchState;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.search.loop.lns.INeighborFactory;
+import org.chocosolver.solver.search.measure.MeasuresRecorder;
+import org.chocosolver.util.tools.ArrayUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.chocosolver.solver.search.strategy.Search.activityBasedSearch;
+
+/*
+Long running solve service so tooling doesn't pay JVM startup and solver warm up for every instance.
+Line based protocol, one request per line, over stdin/stdout or a loopback socket:
+
+    SOLVE <id> size=<n> [type=<t>] [lns=0|1] [limit=<seconds>] [edges=i-j,...] [pos=i-j,...] [neg=i-j,...]
+    CANCEL <id>
+    QUIT
+
+Replies:
+
+    QUEUED <id>
+    INCUMBENT <id> <tcSum> <time>
+    DONE <id> OPTIMAL|STOPPED|CANCELLED|INFEASIBLE <tcSum> <time>
+    ERROR [<id>] <message>
+
+Solves are CPU bound so they run on a fixed pool sized to the machine, everything else queues behind them.
+Connection handling is I/O bound and gets its own cached pool.
+ */
+public class SolveServer {
+    private static int defaultLimit = 120;
+
+    private final ExecutorService solvers;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+
+    public SolveServer(int workers) {
+        this.solvers = Executors.newFixedThreadPool(workers);
+    }
+
+    private static class Job {
+        String id;
+        int size;
+        int type = GraphGenerator.type;
+        boolean lns = false;
+        int limit = defaultLimit;
+        int[][] edges = new int[0][];
+        int[][] pos = new int[0][];
+        int[][] neg = new int[0][];
+        volatile boolean cancelled = false;
+    }
+
+    /*
+    Reads requests until QUIT or end of stream, replies go to out.
+    cancelOnClose drops outstanding jobs when the stream ends or fails, otherwise they are left to finish
+     */
+    public void serve(BufferedReader in, OutputStream out, boolean cancelOnClose) throws IOException {
+        PrintWriter w = new PrintWriter(out, true);
+        Map<String, Job> jobs = new ConcurrentHashMap<>();
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] parts = line.split("\\s+");
+                switch (parts[0].toUpperCase()) {
+                    case "SOLVE" -> {
+                        Job job;
+                        try {
+                            job = parse(parts);
+                        } catch (RuntimeException e) {
+                            reply(w, "ERROR " + e.getMessage());
+                            continue;
+                        }
+                        if (jobs.putIfAbsent(job.id, job) != null) {
+                            reply(w, "ERROR " + job.id + " already running");
+                            continue;
+                        }
+                        reply(w, "QUEUED " + job.id);
+                        solvers.submit(() -> {
+                            try {
+                                run(job, w);
+                            } catch (Throwable e) {
+                                //Errors such as running out of memory on a large size= would otherwise vanish in the Future
+                                reply(w, "ERROR " + job.id + " " + e);
+                            } finally {
+                                jobs.remove(job.id);
+                            }
+                        });
+                    }
+                    case "CANCEL" -> {
+                        Job job = parts.length > 1 ? jobs.get(parts[1]) : null;
+                        if (job == null) {
+                            reply(w, "ERROR " + (parts.length > 1 ? parts[1] + " " : "") + "unknown job");
+                        } else {
+                            job.cancelled = true;
+                        }
+                    }
+                    case "QUIT" -> {
+                        for (Job job : jobs.values()) job.cancelled = true;
+                        return;
+                    }
+                    default -> reply(w, "ERROR unknown command " + parts[0]);
+                }
+            }
+        } finally {
+            //also reached when the connection resets mid-solve, don't leave orphaned jobs holding workers
+            if (cancelOnClose) {
+                for (Job job : jobs.values()) job.cancelled = true;
+            }
+        }
+    }
+
+    private static void reply(PrintWriter w, String msg) {
+        synchronized (w) {
+            w.println(msg);
+        }
+    }
+
+    private static Job parse(String[] parts) {
+        if (parts.length < 2) throw new IllegalArgumentException("missing job id");
+        Job job = new Job();
+        job.id = parts[1];
+        for (int i = 2; i < parts.length; i++) {
+            String[] kv = parts[i].split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException(job.id + " bad option " + parts[i]);
+            try {
+                switch (kv[0]) {
+                    case "size" -> job.size = Integer.parseInt(kv[1]);
+                    case "type" -> job.type = Integer.parseInt(kv[1]);
+                    case "lns" -> {
+                        if (!kv[1].equals("0") && !kv[1].equals("1")) {
+                            throw new IllegalArgumentException(job.id + " lns must be 0 or 1");
+                        }
+                        job.lns = kv[1].equals("1");
+                    }
+                    case "limit" -> job.limit = Integer.parseInt(kv[1]);
+                    case "edges" -> job.edges = pairs(job.id, kv[1]);
+                    case "pos" -> job.pos = pairs(job.id, kv[1]);
+                    case "neg" -> job.neg = pairs(job.id, kv[1]);
+                    default -> throw new IllegalArgumentException(job.id + " unknown option " + kv[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(job.id + " bad number in " + parts[i]);
+            }
+        }
+        if (job.size <= 0) throw new IllegalArgumentException(job.id + " size must be positive");
+        if (job.limit <= 0) throw new IllegalArgumentException(job.id + " limit must be positive");
+        for (int[][] list : new int[][][] {job.edges, job.pos, job.neg}) {
+            for (int[] p : list) {
+                if (p[0] < 0 || p[0] >= job.size || p[1] < 0 || p[1] >= job.size) {
+                    throw new IllegalArgumentException(job.id + " vertex out of range " + p[0] + "-" + p[1]);
+                }
+            }
+        }
+        return job;
+    }
+
+    /*
+    "0-1,1-2" -> {{0,1},{1,2}}
+     */
+    private static int[][] pairs(String id, String s) {
+        if (s.isEmpty()) return new int[0][];
+        String[] items = s.split(",");
+        int[][] res = new int[items.length][];
+        for (int i = 0; i < items.length; i++) {
+            String[] ij = items[i].split("-", -1);
+            if (ij.length != 2) throw new IllegalArgumentException(id + " bad pair " + items[i]);
+            res[i] = new int[] {Integer.parseInt(ij[0]), Integer.parseInt(ij[1])};
+        }
+        return res;
+    }
+
+    /*
+    Builds and solves one instance the same way RandDataGen does, streaming each improvement back
+     */
+    private static void run(Job job, PrintWriter w) {
+        if (job.cancelled) {
+            reply(w, "DONE " + job.id + " CANCELLED 0 0.0");
+            return;
+        }
+        ConstrainedGraph g = new ConstrainedGraph(job.size, job.type);
+        for (int[] e : job.edges) g.addEdge(e[0], e[1]);
+        g.constrain();
+        g.require(job.pos, job.neg);
+
+        Solver solver = g.model.getSolver();
+        MeasuresRecorder measures = solver.getMeasures();
+        solver.limitTime("" + job.limit + "s");
+        solver.addStopCriterion(() -> job.cancelled);
+        solver.setSearch(activityBasedSearch(ArrayUtils.flatten(g.open)));
+        if (job.lns) {
+            solver.setLNS(INeighborFactory.random(ArrayUtils.flatten(g.open)), new FailCounter(g.model, 100));
+        }
+        g.model.setObjective(Model.MAXIMIZE, g.tcSum);
+
+        int best = -1;
+        while (solver.solve()) {
+            best = g.tcSum.getValue();
+            reply(w, "INCUMBENT " + job.id + " " + best + " " + measures.getTimeCount());
+        }
+
+        String status;
+        if (job.cancelled && measures.getSearchState() == SearchState.STOPPED) {
+            status = "CANCELLED";
+        } else if (best < 0) {
+            //choco only flags the objective optimal once a solution exists, so look at how the search ended
+            status = measures.getSearchState() == SearchState.TERMINATED ? "INFEASIBLE" : "STOPPED";
+        } else {
+            status = measures.isObjectiveOptimal() ? "OPTIMAL" : "STOPPED";
+        }
+        reply(w, "DONE " + job.id + " " + status + " " + Math.max(best, 0) + " " + measures.getTimeCount());
+    }
+
+    /*
+    Accepts connections on the loopback interface only, one handler thread each
+     */
+    public void listen(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket client = server.accept();
+                connections.submit(() -> {
+                    try (client) {
+                        serve(new BufferedReader(new InputStreamReader(client.getInputStream())),
+                                client.getOutputStream(), true);
+                    } catch (IOException e) {
+                        System.err.println("Connection dropped: " + e.getMessage());
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    public void shutdown() {
+        solvers.shutdown();
+        connections.shutdownNow();
+    }
+
+    /*
+    No args: serve stdin/stdout
+    args[0]: loopback port to listen on instead
+    args[1]: number of concurrent solves, defaults to available processors
+     */
+    public static void main(String[] args) throws IOException {
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        SolveServer server = new SolveServer(workers);
+        if (args.length > 0) {
+            server.listen(Integer.parseInt(args[0]));
+        } else {
+            //piped batches end with EOF, let the queue drain before exiting
+            server.serve(new BufferedReader(new InputStreamReader(System.in)), System.out, false);
+        }
+        server.shutdown();
+    }
+}